@@ -15,6 +15,15 @@ public class GradebookSystem {
     /** The active database connection. */
     private Connection conn;
 
+    /** Records the query plans of the statements issued by the 'explain' command. */
+    private QueryProfiler profiler = new QueryProfiler();
+
+    /** The real connection while 'explain' swaps in the profiled one. Null otherwise. */
+    private Connection unprofiledConn = null;
+
+    /** Cached score model of the current class for what-if projections. Null until first used. */
+    private WhatIfEngine whatIf = null;
+
     /**
      * Initializes the system and establishes a database connection.
      */
@@ -100,6 +109,7 @@ public class GradebookSystem {
                 } else {
                     currentClassId = firstId;
                     currentCourseName = firstCourse;
+                    whatIf = null;
                     System.out.printf("Class Selected: %s %s (Sec: %d)\n", currentCourseName, firstTerm, firstSec);
                 }
             }
@@ -154,6 +164,7 @@ public class GradebookSystem {
         try (PreparedStatement p = conn.prepareStatement("INSERT INTO categories (class_id, name, weight) VALUES (?, ?, ?)")) {
             p.setInt(1, currentClassId); p.setString(2, name); p.setDouble(3, weight);
             p.executeUpdate(); 
+            whatIf = null;
             System.out.println("Category added.");
         } catch (SQLException e) { System.out.println("Error: " + e.getMessage()); }
     }
@@ -190,6 +201,7 @@ public class GradebookSystem {
             try(PreparedStatement p = conn.prepareStatement("INSERT INTO assignments (class_id, category_id, name, description, points) VALUES (?,?,?,?,?)")) {
                 p.setInt(1, currentClassId); p.setInt(2, catId); p.setString(3, name); p.setString(4, desc); p.setDouble(5, points);
                 p.executeUpdate(); 
+                whatIf = null;
                 System.out.println("Assignment added.");
             }
         } catch (SQLException e) { System.out.println("Error: " + e.getMessage()); }
@@ -271,6 +283,7 @@ public class GradebookSystem {
     private void enrollStudent(int studentId) throws SQLException {
         try(PreparedStatement p = conn.prepareStatement("INSERT IGNORE INTO enrollments (class_id, student_id) VALUES (?, ?)")) {
             p.setInt(1, currentClassId); p.setInt(2, studentId);
+            whatIf = null;
             if(p.executeUpdate() > 0) System.out.println("Student enrolled in current class.");
             else System.out.println("Student was already enrolled.");
         }
@@ -295,6 +308,7 @@ public class GradebookSystem {
             try(PreparedStatement p = conn.prepareStatement("INSERT INTO grades (assignment_id, student_id, points_earned) VALUES (?, ?, ?) ON DUPLICATE KEY UPDATE points_earned = ?")) {
                 p.setInt(1, aId); p.setInt(2, sId); p.setDouble(3, points); p.setDouble(4, points);
                 p.executeUpdate(); 
+                whatIf = null;
                 System.out.println("Grade assigned.");
             }
         } catch (SQLException e) { System.out.println("Error: " + e.getMessage()); }
@@ -478,4 +492,178 @@ public class GradebookSystem {
         System.out.printf("  >> Contribution to final grade: %.2f / %.2f\n", contribution, effectiveWeight);
     }
 
+    // --- WHAT-IF PROJECTIONS ---
+
+    /**
+     * Returns the score model of the active class, loading it on first use.
+     * The model is discarded whenever grades, assignments, categories or enrollments change.
+     * * @return The loaded model, or null if no class is selected or loading failed.
+     */
+    private WhatIfEngine whatIfModel() {
+        if (currentClassId == null) { System.out.println("Error: No class selected."); return null; }
+        if (whatIf == null) {
+            try {
+                whatIf = WhatIfEngine.load(conn, currentClassId);
+            } catch (SQLException e) { System.out.println("Error: " + e.getMessage()); }
+        }
+        return whatIf;
+    }
+
+    /**
+     * Reloads the what-if model from the database.
+     */
+    public void whatIfReload() {
+        whatIf = null;
+        WhatIfEngine model = whatIfModel();
+        if (model != null) System.out.println("What-if model loaded: " + model.studentCount() + " students.");
+    }
+
+    /**
+     * Shows how one hypothetical grade would change a student's total.
+     * * @param assignName The name of the assignment.
+     * @param username   The username of the student.
+     * @param points     The hypothetical points earned.
+     */
+    public void whatIfGrade(String assignName, String username, double points) {
+        WhatIfEngine model = whatIfModel();
+        if (model == null) return;
+        int a = model.findAssignment(assignName);
+        int s = model.findStudent(username);
+        if (a < 0 || s < 0) { System.out.println("Assignment/Student not found."); return; }
+
+        double before = model.total(s, model.baseWeights(), model.noDrops(), -1, 0);
+        double after = model.total(s, model.baseWeights(), model.noDrops(), a, points);
+        System.out.printf("\n%s with %.1f / %.1f on %s:\n", username, points, model.maxPoints(a), assignName);
+        System.out.printf("  Total Grade: %.2f (%s) -> %.2f (%s)\n\n", before, WhatIfEngine.letter(before), after, WhatIfEngine.letter(after));
+    }
+
+    /**
+     * Shows the score needed on an assignment to reach a target grade.
+     * * @param assignName The name of the assignment.
+     * @param target     The target grade, as a number (e.g. "85") or a letter (e.g. "B").
+     * @param username   The username of the student, or null for every student in the class.
+     */
+    public void whatIfRequired(String assignName, String target, String username) {
+        WhatIfEngine model = whatIfModel();
+        if (model == null) return;
+        int a = model.findAssignment(assignName);
+        if (a < 0) { System.out.println("Assignment not found."); return; }
+        double goal = WhatIfEngine.parseTarget(target);
+        double max = model.maxPoints(a);
+
+        double[] required;
+        int[] rows;
+        if (username != null) {
+            int s = model.findStudent(username);
+            if (s < 0) { System.out.println("Student not found."); return; }
+            required = new double[] { model.requiredScore(s, a, goal) };
+            rows = new int[] { s };
+        } else {
+            required = model.requiredScores(a, goal);
+            rows = new int[required.length];
+            for (int i = 0; i < rows.length; i++) rows[i] = i;
+        }
+
+        System.out.printf("\n--- Score needed on %s (max %.1f) for %.2f ---\n", assignName, max, goal);
+        System.out.printf("%-15s %-25s %-15s\n", "Username", "Name", "Needed");
+        for (int i = 0; i < rows.length; i++) {
+            String needed;
+            if (required[i] <= 0) needed = "secured";
+            else if (required[i] > max) needed = "unreachable";
+            else needed = String.format("%.2f", required[i]);
+            System.out.printf("%-15s %-25s %-15s\n", model.username(rows[i]), model.studentName(rows[i]), needed);
+        }
+        System.out.println();
+    }
+
+    /**
+     * Shows how changing a category weight would move every student's total.
+     * * @param catName The name of the category.
+     * @param weight  The hypothetical weight.
+     */
+    public void whatIfWeight(String catName, double weight) {
+        WhatIfEngine model = whatIfModel();
+        if (model == null) return;
+        int c = model.findCategory(catName);
+        if (c < 0) { System.out.println("Category not found."); return; }
+
+        double[] weights = model.baseWeights();
+        weights[c] = weight;
+        printWhatIfComparison(model, model.totals(model.baseWeights(), model.noDrops()), model.totals(weights, model.noDrops()),
+            String.format("%s weight %.2f -> %.2f", catName, model.weight(c), weight));
+    }
+
+    /**
+     * Shows how dropping the lowest graded assignments of a category would move every student's total.
+     * * @param catName The name of the category.
+     * @param count   The number of lowest assignments to drop per student.
+     */
+    public void whatIfDrop(String catName, int count) {
+        WhatIfEngine model = whatIfModel();
+        if (model == null) return;
+        int c = model.findCategory(catName);
+        if (c < 0) { System.out.println("Category not found."); return; }
+        if (model.assignmentCount(c) == 0) { System.out.println("Category has no assignments."); return; }
+        if (count < 0 || count >= model.assignmentCount(c)) {
+            System.out.printf("Error: Drop count must be between 0 and %d for %s.\n", model.assignmentCount(c) - 1, catName);
+            return;
+        }
+
+        int[] drops = model.noDrops();
+        drops[c] = count;
+        printWhatIfComparison(model, model.totals(model.baseWeights(), model.noDrops()), model.totals(model.baseWeights(), drops),
+            String.format("drop lowest %d graded in %s", count, catName));
+        System.out.println("Note: Only graded assignments are dropped (at least one is kept); ungraded work still counts as 0.");
+        System.out.println();
+    }
+
+    /**
+     * Helper method to print per-student totals and the letter distribution before and after a scenario.
+     * * @param model  The what-if model.
+     * @param before Totals under the current gradebook.
+     * @param after  Totals under the scenario.
+     * @param title  Description of the scenario.
+     */
+    private void printWhatIfComparison(WhatIfEngine model, double[] before, double[] after, String title) {
+        System.out.println("\n--- What-if: " + title + " ---");
+        System.out.printf("%-15s %-25s %-10s %-10s %-10s\n", "Username", "Name", "Before", "After", "Change");
+        for (int s = 0; s < before.length; s++) {
+            System.out.printf("%-15s %-25s %-10s %-10s %+-10.2f\n", model.username(s), model.studentName(s),
+                String.format("%.2f %s", before[s], WhatIfEngine.letter(before[s])),
+                String.format("%.2f %s", after[s], WhatIfEngine.letter(after[s])),
+                after[s] - before[s]);
+        }
+
+        String[] letters = WhatIfEngine.letters();
+        int[] countBefore = WhatIfEngine.distribution(before);
+        int[] countAfter = WhatIfEngine.distribution(after);
+        System.out.println("Distribution:");
+        for (int i = 0; i < letters.length; i++) {
+            System.out.printf("  %s: %d -> %d\n", letters[i], countBefore[i], countAfter[i]);
+        }
+        System.out.println();
+    }
+
+    // --- QUERY PROFILING ---
+
+    /**
+     * Starts capturing the query plans of the statements that follow.
+     * Used by the 'explain' command before it runs the command being explained.
+     */
+    public void startExplain() {
+        if (conn == null) return;
+        unprofiledConn = conn;
+        conn = profiler.start(conn);
+    }
+
+    /**
+     * Stops capturing query plans and prints them with index advice.
+     */
+    public void finishExplain() {
+        if (unprofiledConn == null) return;
+        conn = unprofiledConn;
+        unprofiledConn = null;
+        IndexAdvisor.report(conn, profiler.stop());
+    }
+
 }
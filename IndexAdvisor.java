@@ -0,0 +1,126 @@
+import java.io.IOException;
+import java.nio.file.*;
+import java.sql.*;
+import java.util.*;
+import java.util.regex.*;
+
+/**
+ * Reads the plans captured by QueryProfiler and suggests indexes.
+ * A plan line such as "Table scan on g" means every row of that table was read,
+ * "Sort" means a filesort and "temporary" or "Materialize" means MySQL built a
+ * temporary table. Each known query has a short list of the covering indexes that
+ * serve its tables; an index is only suggested when the plan actually scanned that
+ * table and the index does not exist yet. The index definitions are read from the
+ * migration that creates them, so they are only written down once.
+ */
+public class IndexAdvisor {
+
+    /** The migration that defines the covering indexes. */
+    private static final String MIGRATION = "migrations/V2__covering_indexes.sql";
+
+    /**
+     * Which index serves a scanned table in which query:
+     * { text that identifies the query, alias scanned in the plan, index name in the migration }.
+     */
+    private static final String[][] RULES = {
+        // gradebook
+        { "cat_totals", "assignments", "idx_assignments_class_category" },
+        { "cat_totals", "categories", "idx_categories_class_weight" },
+        { "cat_totals", "e", "idx_enrollments_student" },
+        { "cat_totals", "g", "idx_grades_student" },
+        // student-grades
+        { "SELECT SUM(weight) FROM categories", "categories", "idx_categories_class_weight" },
+        { "JOIN students s ON s.username = ? LEFT JOIN grades g", "a", "idx_assignments_class_category" },
+        { "JOIN students s ON s.username = ? LEFT JOIN grades g", "g", "idx_grades_student" },
+        // show-assignment and what-if
+        { "a.name, a.points FROM assignments a", "a", "idx_assignments_class_category" },
+        { "FROM grades g JOIN assignments a", "a", "idx_assignments_class_category" },
+    };
+
+    /** Matches full table and full index scans in the EXPLAIN tree output. */
+    private static final Pattern FULL_SCAN = Pattern.compile("(Table scan|Index scan) on (\\w+)");
+
+    /** Matches "CREATE INDEX name ON table (columns)" in the migration. */
+    private static final Pattern CREATE_INDEX = Pattern.compile("(?i)CREATE\\s+INDEX\\s+(\\w+)\\s+ON\\s+(\\w+)\\s*\\(([^)]*)\\)");
+
+    /**
+     * Prints the plan of each captured statement, the problems found in it and the suggested indexes.
+     * * @param conn    The database connection, used to check which indexes already exist.
+     * @param entries The statements captured by QueryProfiler.
+     */
+    public static void report(Connection conn, List<QueryProfiler.Entry> entries) {
+        // Index name -> { table, columns }
+        Map<String, String[]> migrated = readMigration();
+        Set<String> suggested = new LinkedHashSet<>();
+        int n = 0;
+
+        System.out.println("\n--- Query Profile (" + entries.size() + " statements) ---");
+        for (QueryProfiler.Entry entry : entries) {
+            System.out.println("[" + (++n) + "] " + entry.sql);
+            if (entry.plan == null) {
+                System.out.println("  (" + entry.note + ")");
+                continue;
+            }
+            for (String line : entry.plan.split("\n")) System.out.println("    " + line);
+
+            Matcher m = FULL_SCAN.matcher(entry.plan);
+            while (m.find()) {
+                System.out.println("  >> Full " + (m.group(1).startsWith("Table") ? "table" : "index") + " scan on " + m.group(2));
+                String index = null;
+                for (String[] rule : RULES) {
+                    if (entry.sql.contains(rule[0]) && rule[1].equals(m.group(2))) index = rule[2];
+                }
+                if (index == null || !migrated.containsKey(index)) {
+                    System.out.println("     No covering index is known for this scan.");
+                } else if (indexExists(conn, migrated.get(index)[0], index)) {
+                    System.out.println("     " + index + " already exists; the optimizer chose the scan (small table?).");
+                } else {
+                    suggested.add(index);
+                }
+            }
+            if (entry.plan.contains("Sort:") || entry.plan.contains("Sort row IDs")) {
+                System.out.println("  >> Filesort: rows are sorted after they are read");
+            }
+            if (entry.plan.contains("temporary") || entry.plan.contains("Materialize")) {
+                System.out.println("  >> Temporary table used");
+            }
+        }
+
+        System.out.println("\n--- Index Advice ---");
+        for (String index : suggested) {
+            String[] def = migrated.get(index);
+            System.out.println("  CREATE INDEX " + index + " ON " + def[0] + " (" + def[1] + ");");
+        }
+        if (suggested.isEmpty()) System.out.println("  No missing indexes found.");
+        else System.out.println("  These are applied by " + MIGRATION);
+        System.out.println();
+    }
+
+    /**
+     * Helper method to read the index definitions from the migration.
+     * * @return Index name -> { table, columns }; empty if the file cannot be read.
+     */
+    private static Map<String, String[]> readMigration() {
+        Map<String, String[]> indexes = new HashMap<>();
+        try {
+            Matcher m = CREATE_INDEX.matcher(new String(Files.readAllBytes(Paths.get(MIGRATION))));
+            while (m.find()) indexes.put(m.group(1), new String[] { m.group(2), m.group(3).trim() });
+        } catch (IOException e) {
+            System.out.println("Error: Cannot read " + MIGRATION + ": " + e.getMessage());
+        }
+        return indexes;
+    }
+
+    /**
+     * Helper method to check whether an index exists in the current database.
+     */
+    private static boolean indexExists(Connection conn, String table, String index) {
+        String sql = "SELECT 1 FROM information_schema.statistics WHERE table_schema = DATABASE() AND table_name = ? AND index_name = ?";
+        try (PreparedStatement p = conn.prepareStatement(sql)) {
+            p.setString(1, table); p.setString(2, index);
+            return p.executeQuery().next();
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+}
@@ -1,3 +1,4 @@
+import java.util.Arrays;
 import java.util.Scanner;
 
 /**
@@ -34,116 +35,9 @@ public class Main {
 
             // Split input into command and arguments
             String[] parts = input.split("\\s+");
-            String command = parts[0].toLowerCase();
 
             try {
-                switch (command) {
-                    case "quit": 
-                    case "exit":
-                        running = false; 
-                        system.close(); 
-                        System.out.println("Goodbye!"); 
-                        break;
-
-                    case "help":
-                        printHelp(); 
-                        break;
-                    
-                    // --- Class Management Commands ---
-                    case "list-classes":
-                        system.listClasses(); 
-                        break;
-
-                    case "select-class":
-                        if (parts.length < 2) {
-                            System.out.println("Usage: select-class <Course> [Term] [Sec]");
-                        } else {
-                            // Pass optional arguments (Term and Section) if they exist
-                            system.selectClass(parts[1], (parts.length > 2 ? parts[2] : null), (parts.length > 3 ? parts[3] : null));
-                        }
-                        break;
-
-                    case "new-class":
-                        if (parts.length < 5) {
-                            System.out.println("Usage: new-class <Num> <Term> <Sec> <Desc>");
-                        } else {
-                            // Reconstruct the description string (which might contain spaces)
-                            StringBuilder desc = new StringBuilder();
-                            for(int i=4; i<parts.length; i++) desc.append(parts[i]).append(" ");
-                            system.createClass(parts[1], parts[2], Integer.parseInt(parts[3]), desc.toString().trim().replace("\"", ""));
-                        }
-                        break;
-
-                    case "show-class": 
-                        system.showActiveClass(); 
-                        break;
-
-                    // --- Category & Assignment Commands ---
-                    case "show-categories": 
-                        system.showCategories(); 
-                        break;
-
-                    case "add-category":
-                        if (parts.length < 3) {
-                            System.out.println("Usage: add-category <Name> <Weight>");
-                        } else {
-                            system.addCategory(parts[1], Double.parseDouble(parts[2]));
-                        }
-                        break;
-
-                    case "show-assignment": 
-                        system.showAssignments(); 
-                        break;
-
-                    case "add-assignment":
-                        if (parts.length < 5) {
-                            System.out.println("Usage: add-assignment <Name> <Cat> <Desc> <Points>");
-                        } else {
-                            system.addAssignment(parts[1], parts[2], parts[3].replace("\"", ""), Double.parseDouble(parts[4]));
-                        }
-                        break;
-
-                    // --- Student & Grade Commands ---
-                    case "show-students":
-                        system.showStudents(parts.length > 1 ? parts[1] : null); 
-                        break;
-
-                    case "add-student":
-                        // Logic to handle both short (enroll existing) and long (add new) commands [cite: 45-50]
-                        if (parts.length == 2) {
-                            // Short version: add-student username
-                            system.enrollExistingStudent(parts[1]);
-                        } else if (parts.length >= 5) {
-                            // Long version: add-student user ID Last First
-                            system.addStudentFull(parts[1], parts[2], parts[3], parts[4]);
-                        } else {
-                            System.out.println("Usage: add-student <User> OR add-student <User> <ID> <Last> <First>");
-                        }
-                        break;
-
-                    case "grade":
-                        if (parts.length < 4) {
-                            System.out.println("Usage: grade <Assign> <User> <Points>");
-                        } else {
-                            system.assignGrade(parts[1], parts[2], Double.parseDouble(parts[3]));
-                        }
-                        break;
-
-                    case "gradebook": 
-                        system.showGradebook(); 
-                        break;
-
-                    case "student-grades":
-                        if (parts.length < 2) {
-                            System.out.println("Usage: student-grades <User>");
-                        } else {
-                            system.showStudentGrades(parts[1]);
-                        }
-                        break;
-
-                    default: 
-                        System.out.println("Unknown command.");
-                }
+                running = runCommand(system, parts);
             } catch (Exception e) { 
                 System.out.println("Error processing command: " + e.getMessage()); 
             }
@@ -151,6 +45,162 @@ public class Main {
         scanner.close();
     }
 
+    /**
+     * Runs a single command.
+     * * @param system The gradebook system.
+     * @param parts  The command followed by its arguments.
+     * @return False if the command ends the program, true otherwise.
+     */
+    private static boolean runCommand(GradebookSystem system, String[] parts) {
+        String command = parts[0].toLowerCase();
+        switch (command) {
+            case "quit": 
+            case "exit":
+                system.close(); 
+                System.out.println("Goodbye!"); 
+                return false;
+
+            case "help":
+                printHelp(); 
+                break;
+            
+            // --- Class Management Commands ---
+            case "list-classes":
+                system.listClasses(); 
+                break;
+
+            case "select-class":
+                if (parts.length < 2) {
+                    System.out.println("Usage: select-class <Course> [Term] [Sec]");
+                } else {
+                    // Pass optional arguments (Term and Section) if they exist
+                    system.selectClass(parts[1], (parts.length > 2 ? parts[2] : null), (parts.length > 3 ? parts[3] : null));
+                }
+                break;
+
+            case "new-class":
+                if (parts.length < 5) {
+                    System.out.println("Usage: new-class <Num> <Term> <Sec> <Desc>");
+                } else {
+                    // Reconstruct the description string (which might contain spaces)
+                    StringBuilder desc = new StringBuilder();
+                    for(int i=4; i<parts.length; i++) desc.append(parts[i]).append(" ");
+                    system.createClass(parts[1], parts[2], Integer.parseInt(parts[3]), desc.toString().trim().replace("\"", ""));
+                }
+                break;
+
+            case "show-class": 
+                system.showActiveClass(); 
+                break;
+
+            // --- Category & Assignment Commands ---
+            case "show-categories": 
+                system.showCategories(); 
+                break;
+
+            case "add-category":
+                if (parts.length < 3) {
+                    System.out.println("Usage: add-category <Name> <Weight>");
+                } else {
+                    system.addCategory(parts[1], Double.parseDouble(parts[2]));
+                }
+                break;
+
+            case "show-assignment": 
+                system.showAssignments(); 
+                break;
+
+            case "add-assignment":
+                if (parts.length < 5) {
+                    System.out.println("Usage: add-assignment <Name> <Cat> <Desc> <Points>");
+                } else {
+                    system.addAssignment(parts[1], parts[2], parts[3].replace("\"", ""), Double.parseDouble(parts[4]));
+                }
+                break;
+
+            // --- Student & Grade Commands ---
+            case "show-students":
+                system.showStudents(parts.length > 1 ? parts[1] : null); 
+                break;
+
+            case "add-student":
+                // Logic to handle both short (enroll existing) and long (add new) commands [cite: 45-50]
+                if (parts.length == 2) {
+                    // Short version: add-student username
+                    system.enrollExistingStudent(parts[1]);
+                } else if (parts.length >= 5) {
+                    // Long version: add-student user ID Last First
+                    system.addStudentFull(parts[1], parts[2], parts[3], parts[4]);
+                } else {
+                    System.out.println("Usage: add-student <User> OR add-student <User> <ID> <Last> <First>");
+                }
+                break;
+
+            case "grade":
+                if (parts.length < 4) {
+                    System.out.println("Usage: grade <Assign> <User> <Points>");
+                } else {
+                    system.assignGrade(parts[1], parts[2], Double.parseDouble(parts[3]));
+                }
+                break;
+
+            case "gradebook": 
+                system.showGradebook(); 
+                break;
+
+            case "student-grades":
+                if (parts.length < 2) {
+                    System.out.println("Usage: student-grades <User>");
+                } else {
+                    system.showStudentGrades(parts[1]);
+                }
+                break;
+
+            // --- What-if Projections (no changes are saved) ---
+            case "what-if":
+                String sub = parts.length > 1 ? parts[1].toLowerCase() : "";
+                if (sub.equals("grade") && parts.length >= 5) {
+                    system.whatIfGrade(parts[2], parts[3], Double.parseDouble(parts[4]));
+                } else if (sub.equals("need") && parts.length >= 4) {
+                    system.whatIfRequired(parts[2], parts[3], (parts.length > 4 ? parts[4] : null));
+                } else if (sub.equals("weight") && parts.length >= 4) {
+                    system.whatIfWeight(parts[2], Double.parseDouble(parts[3]));
+                } else if (sub.equals("drop") && parts.length >= 4) {
+                    system.whatIfDrop(parts[2], Integer.parseInt(parts[3]));
+                } else if (sub.equals("reload")) {
+                    system.whatIfReload();
+                } else {
+                    System.out.println("Usage: what-if grade <Assign> <User> <Points>");
+                    System.out.println("       what-if need <Assign> <Target|Letter> [User]");
+                    System.out.println("       what-if weight <Cat> <Weight>");
+                    System.out.println("       what-if drop <Cat> <Count>");
+                    System.out.println("       what-if reload");
+                }
+                break;
+
+            // --- Query Profiling ---
+            case "explain":
+                if (parts.length < 2 || parts[1].equalsIgnoreCase("explain")) {
+                    System.out.println("Usage: explain <command> [args]");
+                } else if (parts[1].equalsIgnoreCase("quit") || parts[1].equalsIgnoreCase("exit")) {
+                    System.out.println("Error: Cannot explain " + parts[1] + ".");
+                } else {
+                    // Run the rest of the line as a normal command while capturing its query plans
+                    system.startExplain();
+                    try {
+                        runCommand(system, Arrays.copyOfRange(parts, 1, parts.length));
+                    } finally {
+                        system.finishExplain();
+                    }
+                }
+                break;
+
+            default: 
+                System.out.println("Unknown command.");
+        }
+        return true;
+    }
+
     /**
      * Prints a list of all available commands to the console.
      * Used to guide the user on how to interact with the system.
@@ -164,6 +214,8 @@ public class Main {
         System.out.println("  add-student <User> (Enroll existing)");
         System.out.println("  add-student <User> <ID> <Last> <First> (Add new)");
         System.out.println("  grade, student-grades, gradebook");
+        System.out.println("  what-if grade|need|weight|drop|reload (Projections, nothing is saved)");
+        System.out.println("  explain <command> (Query plans and index advice)");
         System.out.println("  quit");
     }
 }
\ No newline at end of file
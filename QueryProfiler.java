@@ -0,0 +1,141 @@
+import java.lang.reflect.*;
+import java.sql.*;
+import java.util.*;
+
+/**
+ * Captures the query plan of every SELECT a shell command issues.
+ * While profiling is active, GradebookSystem uses a proxy of its connection so that
+ * it does not need to change how it runs queries. Each query is first run through
+ * EXPLAIN ANALYZE (with the same parameters) on the real connection.
+ */
+public class QueryProfiler {
+
+    /**
+     * One SQL statement issued while profiling, with its plan.
+     */
+    public static class Entry {
+        public final String sql;
+        /** The plan text, or null if the statement could not be explained. */
+        public final String plan;
+        /** Why the statement has no plan (e.g. it is not a SELECT). */
+        public final String note;
+
+        Entry(String sql, String plan, String note) {
+            this.sql = sql;
+            this.plan = plan;
+            this.note = note;
+        }
+    }
+
+    /** The unwrapped connection, used to run the EXPLAIN statements. */
+    private Connection real;
+
+    /** Statements captured since profiling started. Null when profiling is off. */
+    private List<Entry> entries = null;
+
+    /**
+     * Starts capturing statements.
+     * Only the returned connection is profiled, so normal commands keep using the
+     * real connection and pay no proxy cost.
+     * * @param conn The real database connection.
+     * @return A connection that behaves like the original one, to be used until {@link #stop()}.
+     */
+    public Connection start(Connection conn) {
+        this.real = conn;
+        this.entries = new ArrayList<>();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] { Connection.class },
+            (proxy, method, args) -> {
+                Object result = invoke(conn, method, args);
+                if (method.getName().equals("prepareStatement")) {
+                    return wrapPrepared((PreparedStatement) result, (String) args[0]);
+                }
+                if (method.getName().equals("createStatement")) {
+                    return wrapStatement((Statement) result);
+                }
+                return result;
+            });
+    }
+
+    /**
+     * Stops capturing statements.
+     * * @return The statements captured since {@link #start(Connection)} was called.
+     */
+    public List<Entry> stop() {
+        List<Entry> captured = (entries == null) ? new ArrayList<>() : entries;
+        entries = null;
+        return captured;
+    }
+
+    /**
+     * Helper method to wrap a prepared statement and remember its parameters.
+     */
+    private PreparedStatement wrapPrepared(PreparedStatement stmt, String sql) {
+        // Parameter index -> the setter call used, so it can be replayed on the EXPLAIN statement
+        Map<Integer, Object[]> params = new TreeMap<>();
+        return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(), new Class<?>[] { PreparedStatement.class },
+            (proxy, method, args) -> {
+                String name = method.getName();
+                if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                    params.put((Integer) args[0], new Object[] { method, args });
+                } else if (name.equals("clearParameters")) {
+                    params.clear();
+                } else if (name.startsWith("execute") && (args == null || args.length == 0)) {
+                    capture(sql, params);
+                }
+                return invoke(stmt, method, args);
+            });
+    }
+
+    /**
+     * Helper method to wrap a plain statement; the SQL is passed to execute directly.
+     */
+    private Statement wrapStatement(Statement stmt) {
+        return (Statement) Proxy.newProxyInstance(Statement.class.getClassLoader(), new Class<?>[] { Statement.class },
+            (proxy, method, args) -> {
+                if (method.getName().startsWith("execute") && args != null && args.length > 0 && args[0] instanceof String) {
+                    capture((String) args[0], Collections.emptyMap());
+                }
+                return invoke(stmt, method, args);
+            });
+    }
+
+    /**
+     * Records a statement and, if it is a SELECT, its plan.
+     * EXPLAIN ANALYZE needs MySQL 8.0.18; older servers fall back to EXPLAIN FORMAT=TREE.
+     */
+    private void capture(String sql, Map<Integer, Object[]> params) {
+        if (entries == null) return;
+        if (!sql.trim().toUpperCase().startsWith("SELECT")) {
+            entries.add(new Entry(sql, null, "not explained (only SELECT statements are profiled)"));
+            return;
+        }
+        String error = null;
+        for (String prefix : new String[] { "EXPLAIN ANALYZE ", "EXPLAIN FORMAT=TREE " }) {
+            try (PreparedStatement p = real.prepareStatement(prefix + sql)) {
+                for (Object[] call : params.values()) ((Method) call[0]).invoke(p, (Object[]) call[1]);
+                ResultSet rs = p.executeQuery();
+                StringBuilder plan = new StringBuilder();
+                while (rs.next()) plan.append(rs.getString(1));
+                entries.add(new Entry(sql, plan.toString(), null));
+                return;
+            } catch (SQLException e) {
+                error = e.getMessage();
+            } catch (ReflectiveOperationException e) {
+                error = e.toString();
+                break;
+            }
+        }
+        entries.add(new Entry(sql, null, "EXPLAIN failed: " + error));
+    }
+
+    /**
+     * Helper method to call the real JDBC object and rethrow its original exception.
+     */
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
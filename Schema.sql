@@ -5,6 +5,8 @@ DROP TABLE IF EXISTS assignments;
 DROP TABLE IF EXISTS categories;
 DROP TABLE IF EXISTS classes;
 DROP TABLE IF EXISTS students;
+-- Also forget applied migrations, since the tables are recreated without them.
+DROP TABLE IF EXISTS schema_version;
 
 -- Table to store student information.
 -- Username and university_id must be unique (no duplicates allowed).
@@ -0,0 +1,317 @@
+import java.sql.*;
+import java.util.*;
+import java.util.stream.IntStream;
+
+/**
+ * In-memory model of one class's scores used for "what-if" grade projections.
+ * The scores are loaded from the database once and every scenario (hypothetical
+ * grade, weight change, dropped-lowest policy) is evaluated on the arrays only,
+ * so nothing is written back and no further queries are issued.
+ * Grades are computed the same way as the gradebook: ungraded work counts as 0
+ * and category weights are scaled so that they sum to 100.
+ */
+public class WhatIfEngine {
+
+    /** Marker for an assignment that has not been graded yet. */
+    private static final double UNGRADED = Double.NaN;
+
+    /** Lower bounds for the letter grades used in distributions and targets. */
+    private static final String[] LETTERS = { "A", "B", "C", "D", "F" };
+    private static final double[] LETTER_CUTOFFS = { 90, 80, 70, 60, 0 };
+
+    private final String[] usernames;
+    private final String[] studentNames;
+    private final String[] categoryNames;
+    private final double[] categoryWeights;
+    private final String[] assignmentNames;
+    private final double[] assignmentPoints;
+
+    /** Assignments are ordered by category; category c owns [catStart[c], catStart[c + 1]). */
+    private final int[] catStart;
+
+    /** Row-major scores: scores[s * assignmentCount + a]. UNGRADED if no grade exists. */
+    private final double[] scores;
+
+    /** The largest number of assignments in one category; sizes the drop policy scratch arrays. */
+    private final int maxCategorySize;
+
+    private WhatIfEngine(String[] usernames, String[] studentNames, String[] categoryNames, double[] categoryWeights,
+                         String[] assignmentNames, double[] assignmentPoints, int[] catStart, double[] scores) {
+        this.usernames = usernames;
+        this.studentNames = studentNames;
+        this.categoryNames = categoryNames;
+        this.categoryWeights = categoryWeights;
+        this.assignmentNames = assignmentNames;
+        this.assignmentPoints = assignmentPoints;
+        this.catStart = catStart;
+        this.scores = scores;
+        int largest = 0;
+        for (int c = 0; c + 1 < catStart.length; c++) largest = Math.max(largest, catStart[c + 1] - catStart[c]);
+        this.maxCategorySize = largest;
+    }
+
+    /**
+     * Loads the categories, assignments, enrolled students and grades of a class.
+     * * @param conn    The database connection.
+     * @param classId The class to load.
+     * @return The loaded model.
+     * @throws SQLException If any of the queries fail.
+     */
+    public static WhatIfEngine load(Connection conn, int classId) throws SQLException {
+        // Categories, keyed by their database ID
+        Map<Integer, Integer> catIndex = new HashMap<>();
+        List<String> catNames = new ArrayList<>();
+        List<Double> catWeights = new ArrayList<>();
+        try (PreparedStatement p = conn.prepareStatement("SELECT category_id, name, weight FROM categories WHERE class_id = ? ORDER BY name")) {
+            p.setInt(1, classId); ResultSet rs = p.executeQuery();
+            while (rs.next()) {
+                catIndex.put(rs.getInt("category_id"), catNames.size());
+                catNames.add(rs.getString("name"));
+                catWeights.add(rs.getDouble("weight"));
+            }
+        }
+
+        // Assignments, ordered so that each category's assignments are contiguous
+        Map<Integer, Integer> assignIndex = new HashMap<>();
+        List<String> assignNames = new ArrayList<>();
+        List<Double> assignPoints = new ArrayList<>();
+        int[] catStart = new int[catNames.size() + 1];
+        String sqlAssign = "SELECT a.assignment_id, a.category_id, a.name, a.points FROM assignments a " +
+                           "JOIN categories c ON a.category_id = c.category_id WHERE a.class_id = ? ORDER BY c.name, a.name";
+        try (PreparedStatement p = conn.prepareStatement(sqlAssign)) {
+            p.setInt(1, classId); ResultSet rs = p.executeQuery();
+            while (rs.next()) {
+                int c = catIndex.get(rs.getInt("category_id"));
+                catStart[c + 1]++;
+                assignIndex.put(rs.getInt("assignment_id"), assignNames.size());
+                assignNames.add(rs.getString("name"));
+                assignPoints.add(rs.getDouble("points"));
+            }
+        }
+        for (int c = 0; c < catNames.size(); c++) catStart[c + 1] += catStart[c];
+
+        // Enrolled students
+        Map<Integer, Integer> studentIndex = new HashMap<>();
+        List<String> users = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        String sqlStudents = "SELECT s.student_id, s.username, s.first_name, s.last_name FROM students s " +
+                             "JOIN enrollments e ON s.student_id = e.student_id WHERE e.class_id = ? ORDER BY s.username";
+        try (PreparedStatement p = conn.prepareStatement(sqlStudents)) {
+            p.setInt(1, classId); ResultSet rs = p.executeQuery();
+            while (rs.next()) {
+                studentIndex.put(rs.getInt("student_id"), users.size());
+                users.add(rs.getString("username"));
+                names.add(rs.getString("first_name") + " " + rs.getString("last_name"));
+            }
+        }
+
+        // Grades for every assignment of the class in a single pass
+        int assignCount = assignNames.size();
+        double[] scores = new double[users.size() * assignCount];
+        Arrays.fill(scores, UNGRADED);
+        String sqlGrades = "SELECT g.student_id, g.assignment_id, g.points_earned FROM grades g " +
+                           "JOIN assignments a ON g.assignment_id = a.assignment_id WHERE a.class_id = ?";
+        try (PreparedStatement p = conn.prepareStatement(sqlGrades)) {
+            p.setInt(1, classId); ResultSet rs = p.executeQuery();
+            while (rs.next()) {
+                Integer s = studentIndex.get(rs.getInt("student_id"));
+                Integer a = assignIndex.get(rs.getInt("assignment_id"));
+                // Grades of students who are no longer enrolled are ignored
+                if (s != null && a != null) scores[s * assignCount + a] = rs.getDouble("points_earned");
+            }
+        }
+
+        return new WhatIfEngine(
+            users.toArray(new String[0]), names.toArray(new String[0]),
+            catNames.toArray(new String[0]), toArray(catWeights),
+            assignNames.toArray(new String[0]), toArray(assignPoints),
+            catStart, scores);
+    }
+
+    private static double[] toArray(List<Double> list) {
+        double[] out = new double[list.size()];
+        for (int i = 0; i < out.length; i++) out[i] = list.get(i);
+        return out;
+    }
+
+    // --- LOOKUPS ---
+
+    public int studentCount() { return usernames.length; }
+
+    public String username(int s) { return usernames[s]; }
+
+    public String studentName(int s) { return studentNames[s]; }
+
+    public double weight(int c) { return categoryWeights[c]; }
+
+    public double maxPoints(int a) { return assignmentPoints[a]; }
+
+    /** @return The number of assignments in a category. */
+    public int assignmentCount(int c) { return catStart[c + 1] - catStart[c]; }
+
+    /** @return The student index, or -1 if the username is not enrolled. */
+    public int findStudent(String username) { return indexOf(usernames, username); }
+
+    /** @return The category index, or -1 if the category does not exist. */
+    public int findCategory(String name) { return indexOf(categoryNames, name); }
+
+    /** @return The assignment index, or -1 if the assignment does not exist. */
+    public int findAssignment(String name) { return indexOf(assignmentNames, name); }
+
+    private static int indexOf(String[] values, String key) {
+        for (int i = 0; i < values.length; i++) if (values[i].equalsIgnoreCase(key)) return i;
+        return -1;
+    }
+
+    /** @return A copy of the current category weights, to be modified by a scenario. */
+    public double[] baseWeights() { return categoryWeights.clone(); }
+
+    /** @return A drop-count array with no assignments dropped. */
+    public int[] noDrops() { return new int[categoryNames.length]; }
+
+    // --- SCENARIOS ---
+
+    /**
+     * Computes every student's total grade (scaled to 100) in parallel.
+     * * @param weights Category weights to use.
+     * @param drops   Number of lowest graded assignments (by percentage) to drop per category.
+     *                Ungraded assignments are never dropped and at least one graded assignment is kept.
+     * @return One total per student, in the same order as the usernames.
+     */
+    public double[] totals(double[] weights, int[] drops) {
+        double[] out = new double[usernames.length];
+        IntStream.range(0, out.length).parallel().forEach(s -> out[s] = total(s, weights, drops, -1, 0));
+        return out;
+    }
+
+    /**
+     * Computes a single student's total grade, optionally overriding one score.
+     * * @param s         The student index.
+     * @param weights   Category weights to use.
+     * @param drops     Number of lowest assignments to drop per category.
+     * @param override  Assignment index whose score is replaced, or -1 for none.
+     * @param newPoints The hypothetical points for the overridden assignment.
+     * @return The total grade scaled to 100.
+     */
+    public double total(int s, double[] weights, int[] drops, int override, double newPoints) {
+        double totalWeight = 0;
+        for (double w : weights) totalWeight += w;
+        if (totalWeight == 0) return 0;
+
+        int base = s * assignmentPoints.length;
+        double grade = 0;
+        // Scratch space for the drop policy, allocated once per call and reused for every category
+        int[] order = null;
+        double[] percents = null;
+        for (int c = 0; c < weights.length; c++) {
+            int from = catStart[c], to = catStart[c + 1];
+            double earned = 0, max = 0;
+            // Only graded work can be dropped, and at least one graded assignment is always kept
+            int dropCount = Math.min(drops[c], to - from - 1);
+            if (dropCount <= 0) {
+                for (int a = from; a < to; a++) {
+                    earned += points(base, a, override, newPoints);
+                    max += assignmentPoints[a];
+                }
+            } else {
+                if (order == null) { order = new int[maxCategorySize]; percents = new double[maxCategorySize]; }
+                // Ungraded work is kept (as 0); graded work is insertion-sorted by percentage
+                int graded = 0;
+                for (int a = from; a < to; a++) {
+                    if (!isGraded(base, a, override)) { max += assignmentPoints[a]; continue; }
+                    double p = percent(base, a, override, newPoints);
+                    int i = graded++;
+                    for (; i > 0 && percents[i - 1] > p; i--) { order[i] = order[i - 1]; percents[i] = percents[i - 1]; }
+                    order[i] = a; percents[i] = p;
+                }
+                // The lowest ones are at the front of the sorted range
+                for (int i = Math.max(0, Math.min(dropCount, graded - 1)); i < graded; i++) {
+                    earned += points(base, order[i], override, newPoints);
+                    max += assignmentPoints[order[i]];
+                }
+            }
+            if (max > 0) grade += (earned / max) * (weights[c] / totalWeight * 100);
+        }
+        return grade;
+    }
+
+    private double points(int base, int a, int override, double newPoints) {
+        if (a == override) return newPoints;
+        double p = scores[base + a];
+        return Double.isNaN(p) ? 0 : p;
+    }
+
+    private boolean isGraded(int base, int a, int override) {
+        return a == override || !Double.isNaN(scores[base + a]);
+    }
+
+    private double percent(int base, int a, int override, double newPoints) {
+        return assignmentPoints[a] == 0 ? 0 : points(base, a, override, newPoints) / assignmentPoints[a];
+    }
+
+    /**
+     * Solves for the score a student needs on one assignment to reach a target grade.
+     * The total grade is linear in a single score, so two evaluations are enough.
+     * * @param s      The student index.
+     * @param a      The assignment index.
+     * @param target The target total grade (0-100).
+     * @return The required points; may be negative (already secured) or above the maximum (unreachable).
+     */
+    public double requiredScore(int s, int a, double target) {
+        double[] weights = categoryWeights;
+        int[] drops = noDrops();
+        double max = assignmentPoints[a];
+        double atZero = total(s, weights, drops, a, 0);
+        double atMax = total(s, weights, drops, a, max);
+        if (atMax == atZero) return atZero >= target ? 0 : Double.POSITIVE_INFINITY;
+        return (target - atZero) / (atMax - atZero) * max;
+    }
+
+    /**
+     * Solves the required score on one assignment for every student in parallel.
+     * * @param a      The assignment index.
+     * @param target The target total grade (0-100).
+     * @return One required score per student.
+     */
+    public double[] requiredScores(int a, double target) {
+        double[] out = new double[usernames.length];
+        IntStream.range(0, out.length).parallel().forEach(s -> out[s] = requiredScore(s, a, target));
+        return out;
+    }
+
+    // --- LETTER GRADES ---
+
+    /**
+     * Parses a target grade given either as a number or as a letter (e.g. "B").
+     * * @param target The target as typed by the user.
+     * @return The minimum total grade for that target.
+     */
+    public static double parseTarget(String target) {
+        for (int i = 0; i < LETTERS.length; i++) if (LETTERS[i].equalsIgnoreCase(target)) return LETTER_CUTOFFS[i];
+        return Double.parseDouble(target);
+    }
+
+    /** @return The letter grade for a total grade. */
+    public static String letter(double grade) {
+        for (int i = 0; i < LETTERS.length; i++) if (grade >= LETTER_CUTOFFS[i]) return LETTERS[i];
+        return LETTERS[LETTERS.length - 1];
+    }
+
+    /** @return The letters used by {@link #distribution(double[])}, best first. */
+    public static String[] letters() { return LETTERS.clone(); }
+
+    /**
+     * Counts how many totals fall into each letter grade.
+     * * @param totals Total grades.
+     * @return Counts in the same order as {@link #letters()}.
+     */
+    public static int[] distribution(double[] totals) {
+        int[] counts = new int[LETTERS.length];
+        for (double t : totals) {
+            for (int i = 0; i < LETTERS.length; i++) {
+                if (t >= LETTER_CUTOFFS[i] || i == LETTERS.length - 1) { counts[i]++; break; }
+            }
+        }
+        return counts;
+    }
+}
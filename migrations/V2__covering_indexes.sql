@@ -0,0 +1,32 @@
+-- Migration V2: covering indexes for the gradebook and student grade queries.
+-- V1 is the original Schema.sql. Run this once against an existing database:
+--   mysql gradebook < migrations/V2__covering_indexes.sql
+-- Use the 'explain' shell command (e.g. "explain gradebook") to see which queries need them.
+-- Running Schema.sql again drops schema_version, so V2 has to be applied again afterwards.
+
+-- Table to record which migrations have been applied.
+CREATE TABLE IF NOT EXISTS schema_version (
+    version     INT PRIMARY KEY,
+    description VARCHAR(255) NOT NULL,
+    applied_at  TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Grades looked up by student. Includes points_earned so the grade is read
+-- from the index alone. Replaces the implicit grades.student_id foreign key index.
+CREATE INDEX idx_grades_student ON grades (student_id, assignment_id, points_earned);
+
+-- Assignments of a class grouped by category. Covers the cat_totals subquery (sums points
+-- per category) and the assignment columns read by student-grades (name, points).
+-- The implicit assignments.category_id foreign key index is kept for joins from categories.
+CREATE INDEX idx_assignments_class_category ON assignments (class_id, category_id, points, name);
+
+-- Total weight of a class (the class_totals subquery) without reading the table rows.
+CREATE INDEX idx_categories_class_weight ON categories (class_id, weight);
+
+-- Classes a student is enrolled in. Replaces the implicit enrollments.student_id foreign key index.
+CREATE INDEX idx_enrollments_student ON enrollments (student_id, class_id);
+
+-- Recorded last, since MySQL cannot roll back DDL: if any index above fails,
+-- V2 is not marked as applied. Drop the indexes it did create, then run it again.
+-- Re-running V2 after it succeeded fails on the first CREATE INDEX, before anything is changed.
+INSERT INTO schema_version (version, description) VALUES (2, 'Covering indexes for gradebook queries');